@@ -0,0 +1,10 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+public interface TenantTicketService {
+
+    void purchaseTickets(Long cinemaId, Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException;
+
+}
@@ -0,0 +1,183 @@
+package uk.gov.dwp.uc.pairtest;
+
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import uk.gov.dwp.uc.pairtest.domain.CinemaTenantConfig;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class TenantTicketServiceImpl implements TenantTicketService {
+
+    // Lookup of every cinema being served
+    // reads never take a lock so one cinema can't slow down another
+    private final ConcurrentHashMap<Long, CinemaTenant> tenants;
+
+    // Keeps memory bounded however many cinemas are loaded
+    private final int maxTenants;
+    private final AtomicInteger tenantCount = new AtomicInteger();
+
+    // Quotas of removed cinemas whose purchases are still finishing
+    // kept so a cinema registered again straight away carries on counting them
+    private final ConcurrentHashMap<Long, PurchaseQuota> drainingQuotas = new ConcurrentHashMap<>();
+
+
+    public TenantTicketServiceImpl(int maxTenants) {
+        // There must be room for at least one cinema
+        if (maxTenants <= 0) {
+            throw new IllegalArgumentException("The maximum number of cinemas must be positive!");
+        }
+
+        this.maxTenants = maxTenants;
+
+        // Sized up front so the table never has to grow past the limit
+        this.tenants = new ConcurrentHashMap<>(maxTenants);
+    }
+
+
+    // Adding a cinema, or replacing the configuration of one already loaded
+    public void registerTenant(long cinemaId, CinemaTenantConfig config) {
+        // A cinema can't be loaded without a configuration
+        if (config == null) {
+            throw new IllegalArgumentException("A cinema can't be registered without a configuration!");
+        }
+
+        // Deciding between a new cinema and a replacement atomically for this cinema ID
+        tenants.compute(cinemaId, (id, existing) -> {
+
+            // Replacing an existing cinema doesn't use up any more room
+            // and keeps its quota, so purchases already in progress still count against it
+            if (existing != null) {
+                existing.quota.resize(config.getMaxConcurrentPurchases());
+                return new CinemaTenant(config, existing.quota);
+            }
+
+            // Reserving room for the new cinema
+            if (tenantCount.incrementAndGet() > maxTenants) {
+                tenantCount.decrementAndGet();
+                throw new IllegalStateException("No more than " + maxTenants + " cinemas can be loaded!");
+            }
+
+            // A cinema removed moments ago takes back its quota if purchases are still finishing
+            PurchaseQuota quota = drainingQuotas.remove(id);
+            if (quota == null) {
+                quota = new PurchaseQuota(config.getMaxConcurrentPurchases());
+            } else {
+                quota.resize(config.getMaxConcurrentPurchases());
+            }
+
+            return new CinemaTenant(config, quota);
+        });
+    }
+
+    // Removing a cinema, purchases already in progress are allowed to finish
+    public void removeTenant(long cinemaId) {
+        // Freeing the room atomically with the removal, just like registration reserves it
+        tenants.computeIfPresent(cinemaId, (id, existing) -> {
+            tenantCount.decrementAndGet();
+
+            // Holding on to the quota until the purchases in progress have finished
+            if (!existing.quota.isIdle()) {
+                drainingQuotas.put(id, existing.quota);
+                releaseIfDrained(id, existing.quota);
+            }
+
+            return null;
+        });
+    }
+
+
+    @Override
+    public void purchaseTickets(Long cinemaId, Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+
+        // Finding the cinema the purchase is for
+        CinemaTenant tenant = (cinemaId == null) ? null : tenants.get(cinemaId);
+
+        // Only cinemas that have been loaded can sell tickets
+        if (tenant == null) {
+            throw new InvalidPurchaseException("The cinema provided is not recognised, please enter a valid cinema.");
+        }
+
+        // Only letting through as many purchases as the cinema's quota allows
+        if (!tenant.quota.tryAcquire()) {
+            throw new InvalidPurchaseException("The cinema is handling too many purchases, please try again shortly.");
+        }
+
+        try {
+            // Handing the purchase over to one of the cinema's own ticket services
+            tenant.nextTicketService().purchaseTickets(accountId, ticketTypeRequests);
+        } finally {
+            // Freeing up the slot for the next purchase
+            tenant.quota.release();
+            releaseIfDrained(cinemaId, tenant.quota);
+        }
+    }
+
+    // Forgetting a removed cinema's quota once its last purchase has finished
+    private void releaseIfDrained(Long cinemaId, PurchaseQuota quota) {
+        if (quota.isIdle()) {
+            drainingQuotas.remove(cinemaId, quota);
+        }
+    }
+
+
+    // Everything a single cinema needs at purchase time
+    private static final class CinemaTenant {
+
+        // One ticket service per payment client in the cinema's pool
+        private final TicketServiceImpl[] ticketServices;
+        private final PurchaseQuota quota;
+        private final AtomicInteger nextService = new AtomicInteger();
+
+        private CinemaTenant(CinemaTenantConfig config, PurchaseQuota quota) {
+            List<TicketPaymentService> paymentClients = config.getPaymentClients();
+
+            // Each payment client gets a ticket service with the cinema's pricing and limit
+            ticketServices = new TicketServiceImpl[paymentClients.size()];
+            for (int i = 0; i < ticketServices.length; i++) {
+                ticketServices[i] = new TicketServiceImpl(paymentClients.get(i), config.getSeatReservation(),
+                        config.getAdultPrice(), config.getChildPrice(), config.getTicketLimit());
+            }
+
+            this.quota = quota;
+        }
+
+        // Spreading purchases across the payment clients in turn
+        private TicketServiceImpl nextTicketService() {
+            return ticketServices[Math.floorMod(nextService.getAndIncrement(), ticketServices.length)];
+        }
+    }
+
+    // Concurrent purchase quota that can be resized when a cinema's config is replaced
+    private static final class PurchaseQuota extends Semaphore {
+
+        private int limit;
+
+        private PurchaseQuota(int limit) {
+            super(limit);
+            this.limit = limit;
+        }
+
+        // Shrinking can leave the permits negative until in-progress purchases finish
+        private synchronized void resize(int newLimit) {
+            if (newLimit > limit) {
+                release(newLimit - limit);
+            } else if (newLimit < limit) {
+                reducePermits(limit - newLimit);
+            }
+
+            limit = newLimit;
+        }
+
+        // No purchases in progress against this quota
+        private synchronized boolean isIdle() {
+            return availablePermits() == limit;
+        }
+    }
+
+}
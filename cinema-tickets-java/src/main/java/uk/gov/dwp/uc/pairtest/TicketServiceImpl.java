@@ -2,8 +2,9 @@ package uk.gov.dwp.uc.pairtest;
 
 
 import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.CinemaTenantConfig;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
-import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.paymentgateway.TicketPaymentService;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
 import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
 
@@ -13,8 +14,15 @@ import java.util.List;
 
 public class TicketServiceImpl implements TicketService {
 
+    // Default Pricing and Group Limit
+    // used when no cinema specific values are given
+    public static final int DEFAULT_ADULT_PRICE = 20, DEFAULT_CHILD_PRICE = 10, DEFAULT_TICKET_LIMIT = 20;
+
     private final SeatReservationService seatingPlatform;
-    private final TicketPaymentServiceImpl payPlatform;
+    private final TicketPaymentService payPlatform;
+
+    // Pricing and Group Limit applied to every purchase
+    private final int adultPrice, childPrice, ticketLimit;
 
     /**
      * Should only have private methods other than the one below.
@@ -22,12 +30,27 @@ public class TicketServiceImpl implements TicketService {
 
     // Public Constructor (Should not could under the methods constraint given the class is public)
     // And the only way to test the behaviour closely will be to have a public constructor
-    public TicketServiceImpl(TicketPaymentServiceImpl paymentPlatform, SeatReservationService reserveSeat) {
+    public TicketServiceImpl(TicketPaymentService paymentPlatform, SeatReservationService reserveSeat) {
+        // Falling back on the default Pricing and Group Limit
+        this(paymentPlatform, reserveSeat, DEFAULT_ADULT_PRICE, DEFAULT_CHILD_PRICE, DEFAULT_TICKET_LIMIT);
+    }
+
+    // Constructor allowing a cinema to set its own Pricing and Group Limit
+    public TicketServiceImpl(TicketPaymentService paymentPlatform, SeatReservationService reserveSeat,
+                             int adultPrice, int childPrice, int ticketLimit) {
+        // Rejecting Pricing and Group Limits that can't be charged safely
+        CinemaTenantConfig.validatePricing(adultPrice, childPrice, ticketLimit);
+
         // Now this allows me to make payment requests
         this.payPlatform = paymentPlatform;
 
         // And Seat Reservation Requests
         this.seatingPlatform = reserveSeat;
+
+        // Setting the Pricing and Group Limit
+        this.adultPrice = adultPrice;
+        this.childPrice = childPrice;
+        this.ticketLimit = ticketLimit;
     }
 
 
@@ -83,14 +106,12 @@ public class TicketServiceImpl implements TicketService {
 
 
     private int calculateTicketCost(int aTicket, int cTicket) {
-        // Important calculation constants
-        final int childTicket = 10, adultTicket = 20;
-
         // The variable that will hold the total cost
         int totalTicketCost;
 
         // Now to calculate the total Ticket Cost
-        totalTicketCost = (adultTicket * aTicket) + (childTicket * cTicket);
+        // the validated Pricing and Group Limit keep this from overflowing
+        totalTicketCost = (adultPrice * aTicket) + (childPrice * cTicket);
 
         // Default Return value
         // Stating the function has not been implemented
@@ -120,7 +141,7 @@ public class TicketServiceImpl implements TicketService {
     private List<Integer> resolveTicketOrder(TicketTypeRequest[] ticketTypeRequests) {
 
         // Monitoring of Ticket Request Group Size
-        final int noTickets = 0, ticketLimit = 20;
+        final int noTickets = 0;
         int numTickets = 0, totalTicketGroup = 0;
 
         // Important variables to keep track of the ticket composure
@@ -146,6 +167,19 @@ public class TicketServiceImpl implements TicketService {
                 // Need to check the No. of tickets requested
                 numTickets = ticketTypeRequests[i].getNoOfTickets();
 
+                // A request must be for at least one ticket
+                if (numTickets <= noTickets) {
+                    // Throw the exception
+                    throw new InvalidPurchaseException("Each ticket request must be for at least one ticket!");
+                }
+
+                // cases where the ticket limit is exceeded
+                // checked as the group grows so the totals can't overflow
+                if (numTickets > ticketLimit - totalTicketGroup) {
+                    // Throw the exception
+                    throw new InvalidPurchaseException("A Maximum of " + ticketLimit + " tickets can be purchased per group!");
+                }
+
                 // Conditionally Updating the Ticket Type Totals
                 if (currentTicket == ADULT) {
                     // Increment 'adultTickets'
@@ -186,14 +220,6 @@ public class TicketServiceImpl implements TicketService {
         }
 
 
-        // cases where the 20 tickets limit is exceeded
-        if (totalTicketGroup > ticketLimit) {
-
-            // Throw the exception
-            throw new InvalidPurchaseException("A Maximum of 20 tickets can be purchased per group!");
-        }
-
-
         // Now to pass the ticket composure back via list
         List<Integer> ticketComposure = new ArrayList<>();
 
@@ -207,7 +233,7 @@ public class TicketServiceImpl implements TicketService {
     }
 
     // Ticket Payment Request
-    private void payTicket(TicketPaymentServiceImpl paymentPlatform, long accountID, int ticketTotal) {
+    private void payTicket(TicketPaymentService paymentPlatform, long accountID, int ticketTotal) {
         // Paying
         paymentPlatform.makePayment(accountID, ticketTotal);
     }
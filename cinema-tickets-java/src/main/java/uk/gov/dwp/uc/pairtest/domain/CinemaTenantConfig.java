@@ -0,0 +1,89 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable Object
+ *
+ * Holds everything one cinema needs to sell tickets on its own:
+ * pricing, group limit, concurrency quota and its own gateway clients.
+ */
+
+public class CinemaTenantConfig {
+
+    private final int adultPrice;
+    private final int childPrice;
+    private final int ticketLimit;
+    private final int maxConcurrentPurchases;
+    private final List<TicketPaymentService> paymentClients;
+    private final SeatReservationService seatReservation;
+
+    public CinemaTenantConfig(int adultPrice, int childPrice, int ticketLimit, int maxConcurrentPurchases,
+                              List<TicketPaymentService> paymentClients, SeatReservationService seatReservation) {
+
+        // A bad config fails when it's built rather than when the cinema is registered
+        validatePricing(adultPrice, childPrice, ticketLimit);
+
+        // At least one purchase must be allowed through at a time
+        if (maxConcurrentPurchases <= 0) {
+            throw new IllegalArgumentException("The concurrent purchase quota must be positive!");
+        }
+
+        // A cinema needs its own gateway clients to take payments and reserve seats
+        if (paymentClients == null || paymentClients.isEmpty()
+                || paymentClients.stream().anyMatch(Objects::isNull) || seatReservation == null) {
+            throw new IllegalArgumentException("A cinema needs at least one payment client and a seat reservation service!");
+        }
+
+        this.adultPrice = adultPrice;
+        this.childPrice = childPrice;
+        this.ticketLimit = ticketLimit;
+        this.maxConcurrentPurchases = maxConcurrentPurchases;
+        this.paymentClients = List.copyOf(paymentClients);
+        this.seatReservation = seatReservation;
+    }
+
+    // Pricing and Group Limit rules shared with TicketServiceImpl
+    // so that a full group at the highest price still fits in a payment
+    public static void validatePricing(int adultPrice, int childPrice, int ticketLimit) {
+
+        // Prices can't be negative and a group needs at least one ticket
+        if (adultPrice < 0 || childPrice < 0 || ticketLimit <= 0) {
+            throw new IllegalArgumentException("Ticket prices must not be negative and the ticket limit must be positive!");
+        }
+
+        // The most expensive full group must not overflow the payment amount
+        if ((long) ticketLimit * Math.max(adultPrice, childPrice) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A full group of tickets at these prices is too large to be paid for!");
+        }
+    }
+
+    public int getAdultPrice() {
+        return adultPrice;
+    }
+
+    public int getChildPrice() {
+        return childPrice;
+    }
+
+    public int getTicketLimit() {
+        return ticketLimit;
+    }
+
+    public int getMaxConcurrentPurchases() {
+        return maxConcurrentPurchases;
+    }
+
+    public List<TicketPaymentService> getPaymentClients() {
+        return paymentClients;
+    }
+
+    public SeatReservationService getSeatReservation() {
+        return seatReservation;
+    }
+
+}
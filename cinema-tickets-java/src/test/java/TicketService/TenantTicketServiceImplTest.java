@@ -0,0 +1,500 @@
+package TicketService;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TenantTicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.CinemaTenantConfig;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class TenantTicketServiceImplTest {
+
+    // Importing the Class being tested
+    private TenantTicketServiceImpl underTest;
+
+    // Gateway clients belonging to each cinema
+    private TicketPaymentService cityPay, cityPaySpare, harbourPay;
+    private SeatReservationService citySeats, harbourSeats;
+
+    // Cinema IDs
+    private final Long cityCinema = 1L, harbourCinema = 2L;
+
+    @Rule
+    public ExpectedException ticketRequestExceptions = ExpectedException.none();
+
+    @Before
+    public void setUp() throws Exception {
+        // Ticket Payment Services
+        cityPay = mock(TicketPaymentService.class);
+        cityPaySpare = mock(TicketPaymentService.class);
+        harbourPay = mock(TicketPaymentService.class);
+
+        // Seat Reservation Services
+        citySeats = mock(SeatReservationService.class);
+        harbourSeats = mock(SeatReservationService.class);
+
+        // Now Initializing the Ticket Service being tested
+        underTest = new TenantTicketServiceImpl(2);
+
+        // The City cinema uses the default prices with two payment clients
+        underTest.registerTenant(cityCinema, new CinemaTenantConfig(20, 10, 20, 5, List.of(cityPay, cityPaySpare), citySeats));
+
+        // The Harbour cinema has its own prices and a smaller group limit
+        underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 5, List.of(harbourPay), harbourSeats));
+    }
+
+
+    @Test
+    public void purchase_RoutedToCinemaWithItsOwnPricing() {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // Family ticket purchased at the Harbour cinema
+        underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 1));
+
+        // Harbour prices are used and only Harbour gateways are called
+        verify(harbourPay).makePayment(myAccount, 35);
+        verify(harbourSeats).reserveSeat(myAccount, 3);
+        verifyNoInteractions(cityPay, cityPaySpare, citySeats);
+    }
+
+
+    @Test
+    public void purchases_SpreadAcrossCinemaPaymentClients() {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // Two purchases at the City cinema
+        underTest.purchaseTickets(cityCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+        underTest.purchaseTickets(cityCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+
+        // Each payment client takes one of the payments
+        verify(cityPay).makePayment(myAccount, 20);
+        verify(cityPaySpare).makePayment(myAccount, 20);
+        verify(citySeats, times(2)).reserveSeat(myAccount, 1);
+    }
+
+
+    @Test
+    public void cinemaTicketLimitExceeded_PurchaseRejected() {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // Expected Exception
+        ticketRequestExceptions.expect(InvalidPurchaseException.class);
+        ticketRequestExceptions.expectMessage("A Maximum of 4 tickets can be purchased per group!");
+
+        // Five tickets is allowed at the City cinema but not at the Harbour cinema
+        underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 5));
+    }
+
+
+    @Test
+    public void unknownCinema_PurchaseRejected() {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // Expected Exception
+        ticketRequestExceptions.expect(InvalidPurchaseException.class);
+        ticketRequestExceptions.expectMessage("The cinema provided is not recognised, please enter a valid cinema.");
+
+        // Cinema that was never registered
+        underTest.purchaseTickets(99L, myAccount, new TicketTypeRequest(ADULT, 1));
+    }
+
+
+    @Test
+    public void removedCinema_PurchaseRejected() {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // The City cinema is taken out of service
+        underTest.removeTenant(cityCinema);
+
+        // Expected Exception
+        ticketRequestExceptions.expect(InvalidPurchaseException.class);
+        ticketRequestExceptions.expectMessage("The cinema provided is not recognised, please enter a valid cinema.");
+
+        underTest.purchaseTickets(cityCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+    }
+
+
+    @Test
+    public void cinemaLimitReached_RegistrationRejected() {
+        // Expected Exception
+        ticketRequestExceptions.expect(IllegalStateException.class);
+        ticketRequestExceptions.expectMessage("No more than 2 cinemas can be loaded!");
+
+        // A third cinema goes over the limit of two
+        underTest.registerTenant(3L, new CinemaTenantConfig(20, 10, 20, 5, List.of(cityPay), citySeats));
+    }
+
+
+    @Test
+    public void cinemaLimitReached_ReplacingCinemaStillAllowed() {
+        // Re-registering both loaded cinemas doesn't use up any room
+        underTest.registerTenant(cityCinema, new CinemaTenantConfig(25, 12, 20, 5, List.of(cityPay), citySeats));
+        underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 5, List.of(harbourPay), harbourSeats));
+
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // The new City pricing is used
+        underTest.purchaseTickets(cityCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+        verify(cityPay).makePayment(myAccount, 25);
+
+        // Room is freed once a cinema is removed
+        underTest.removeTenant(harbourCinema);
+        underTest.registerTenant(3L, new CinemaTenantConfig(20, 10, 20, 5, List.of(harbourPay), harbourSeats));
+
+        // But the limit of two still holds
+        ticketRequestExceptions.expect(IllegalStateException.class);
+        ticketRequestExceptions.expectMessage("No more than 2 cinemas can be loaded!");
+
+        underTest.registerTenant(4L, new CinemaTenantConfig(20, 10, 20, 5, List.of(harbourPay), harbourSeats));
+    }
+
+
+    @Test
+    public void nullConfig_RegistrationRejected() {
+        // Expected Exception
+        ticketRequestExceptions.expect(IllegalArgumentException.class);
+        ticketRequestExceptions.expectMessage("A cinema can't be registered without a configuration!");
+
+        underTest.registerTenant(3L, null);
+    }
+
+
+    @Test
+    public void invalidConfigs_Rejected() {
+        // Every one of these configurations must be refused
+        List<Runnable> badConfigs = List.of(
+                () -> new CinemaTenantConfig(-1, 10, 20, 5, List.of(cityPay), citySeats),
+                () -> new CinemaTenantConfig(20, -1, 20, 5, List.of(cityPay), citySeats),
+                () -> new CinemaTenantConfig(20, 10, 0, 5, List.of(cityPay), citySeats),
+                () -> new CinemaTenantConfig(20, 10, 20, 0, List.of(cityPay), citySeats),
+                () -> new CinemaTenantConfig(Integer.MAX_VALUE, 10, 2, 5, List.of(cityPay), citySeats),
+                () -> new CinemaTenantConfig(20, 10, 20, 5, null, citySeats),
+                () -> new CinemaTenantConfig(20, 10, 20, 5, List.of(), citySeats),
+                () -> new CinemaTenantConfig(20, 10, 20, 5, Arrays.asList(cityPay, null), citySeats),
+                () -> new CinemaTenantConfig(20, 10, 20, 5, List.of(cityPay), null));
+
+        for (int i = 0; i < badConfigs.size(); i++) {
+            try {
+                badConfigs.get(i).run();
+                fail("Configuration " + i + " should have been rejected!");
+            } catch (IllegalArgumentException expected) {
+                // The configuration was refused as expected
+            }
+        }
+    }
+
+
+    @Test
+    public void failedPurchases_QuotaReturned() {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // A cinema that only allows one purchase at a time
+        // whose payment gateway fails the first time
+        TicketPaymentService flakyPay = mock(TicketPaymentService.class);
+        doThrow(new IllegalStateException("Gateway down")).doNothing().when(flakyPay).makePayment(myAccount, 15);
+        underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 1, List.of(flakyPay), harbourSeats));
+
+        // The payment fails
+        try {
+            underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+            fail("The gateway failure should have been passed on!");
+        } catch (IllegalStateException expected) {
+            // The gateway failure was passed on
+        }
+
+        // The request is rejected
+        try {
+            underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 5));
+            fail("The ticket limit should have been enforced!");
+        } catch (InvalidPurchaseException expected) {
+            // The ticket limit was enforced
+        }
+
+        // The quota's single slot is still free afterwards
+        underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+        verify(harbourSeats).reserveSeat(myAccount, 1);
+    }
+
+
+    @Test
+    public void cinemaQuotaExhausted_PurchaseRejected() throws Exception {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // A cinema that allows two purchases at a time with a gateway that waits to be let go
+        CountDownLatch paying = new CountDownLatch(2), letGo = new CountDownLatch(1);
+        TicketPaymentService slowPay = blockingPayment(paying, letGo);
+        underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 2, List.of(slowPay), harbourSeats));
+
+        // Two purchases fill the quota from other threads
+        ExecutorService buyers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = buyers.submit(() -> underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1)));
+            Future<?> second = buyers.submit(() -> underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1)));
+            assertTrue(paying.await(5, TimeUnit.SECONDS));
+
+            // A third purchase is turned away while they are paying
+            assertQuotaExhausted(harbourCinema, myAccount);
+
+            // The other cinema isn't affected
+            underTest.purchaseTickets(cityCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+
+            // Once both finish the quota is free again
+            letGo.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+            verify(harbourSeats, times(3)).reserveSeat(myAccount, 1);
+        } finally {
+            letGo.countDown();
+            buyers.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void replacingConfig_QuotaStillHeldByPurchasesInProgress() throws Exception {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // A cinema that allows one purchase at a time with a gateway that waits to be let go
+        CountDownLatch paying = new CountDownLatch(1), letGo = new CountDownLatch(1);
+        TicketPaymentService slowPay = blockingPayment(paying, letGo);
+        underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 1, List.of(slowPay), harbourSeats));
+
+        ExecutorService buyers = Executors.newSingleThreadExecutor();
+        try {
+            // One purchase takes the only slot
+            Future<?> first = buyers.submit(() -> underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1)));
+            assertTrue(paying.await(5, TimeUnit.SECONDS));
+
+            // The config is replaced while it is still paying
+            underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 1, List.of(harbourPay), harbourSeats));
+
+            // The purchase in progress still counts against the quota
+            assertQuotaExhausted(harbourCinema, myAccount);
+
+            // Once it finishes the slot is free for the new config
+            letGo.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+            verify(harbourPay).makePayment(myAccount, 15);
+        } finally {
+            letGo.countDown();
+            buyers.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void removedAndRegisteredAgain_QuotaStillHeldByPurchasesInProgress() throws Exception {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // A cinema that allows one purchase at a time with a gateway that waits to be let go
+        CountDownLatch paying = new CountDownLatch(1), letGo = new CountDownLatch(1);
+        TicketPaymentService slowPay = blockingPayment(paying, letGo);
+        underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 1, List.of(slowPay), harbourSeats));
+
+        ExecutorService buyers = Executors.newSingleThreadExecutor();
+        try {
+            // One purchase takes the only slot
+            Future<?> first = buyers.submit(() -> underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1)));
+            assertTrue(paying.await(5, TimeUnit.SECONDS));
+
+            // The cinema is taken out and put straight back while it is still paying
+            underTest.removeTenant(harbourCinema);
+            underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 1, List.of(harbourPay), harbourSeats));
+
+            // The purchase in progress still counts against the quota
+            assertQuotaExhausted(harbourCinema, myAccount);
+
+            // Once it finishes the slot is free again
+            letGo.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+            verify(harbourPay).makePayment(myAccount, 15);
+        } finally {
+            letGo.countDown();
+            buyers.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void removedWhilePaying_QuotaNotCarriedOnceFinished() throws Exception {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // A cinema that allows one purchase at a time with a gateway that waits to be let go
+        CountDownLatch paying = new CountDownLatch(1), letGo = new CountDownLatch(1);
+        TicketPaymentService slowPay = blockingPayment(paying, letGo);
+        underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 1, List.of(slowPay), harbourSeats));
+
+        ExecutorService buyers = Executors.newSingleThreadExecutor();
+        try {
+            // The cinema is removed while a purchase is still paying
+            Future<?> first = buyers.submit(() -> underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1)));
+            assertTrue(paying.await(5, TimeUnit.SECONDS));
+            underTest.removeTenant(harbourCinema);
+
+            // The purchase finishes before the cinema comes back
+            letGo.countDown();
+            first.get(5, TimeUnit.SECONDS);
+
+            // Registered again with a bigger quota, all of it is free
+            underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 2, List.of(harbourPay), harbourSeats));
+            underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+            underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+            verify(harbourPay, times(2)).makePayment(myAccount, 15);
+        } finally {
+            letGo.countDown();
+            buyers.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void concurrentRemoveAndRegister_NeverSpuriouslyFull() throws Exception {
+        // Both cinemas are taken out and put back over and over at the limit of two
+        int rounds = 2000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService admins = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Long cinemaId : List.of(cityCinema, harbourCinema)) {
+                results.add(admins.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < rounds; i++) {
+                        underTest.removeTenant(cinemaId);
+                        underTest.registerTenant(cinemaId, new CinemaTenantConfig(20, 10, 20, 5, List.of(cityPay), citySeats));
+                    }
+                    return null;
+                }));
+            }
+
+            // No registration is ever turned away as over the limit
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            admins.shutdownNow();
+        }
+
+        // And the limit of two still holds afterwards
+        ticketRequestExceptions.expect(IllegalStateException.class);
+        ticketRequestExceptions.expectMessage("No more than 2 cinemas can be loaded!");
+
+        underTest.registerTenant(3L, new CinemaTenantConfig(20, 10, 20, 5, List.of(cityPay), citySeats));
+    }
+
+
+    @Test
+    public void concurrentPurchases_NeverExceedCinemaQuota() throws Exception {
+        // A valid Account Number
+        Long myAccount = 4500821L;
+
+        // Tracking how many payments are in progress at once
+        AtomicInteger inProgress = new AtomicInteger(), mostInProgress = new AtomicInteger();
+        TicketPaymentService trackedPay = mock(TicketPaymentService.class);
+        doAnswer(invocation -> {
+            mostInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            inProgress.decrementAndGet();
+            return null;
+        }).when(trackedPay).makePayment(anyLong(), anyInt());
+
+        // A cinema that allows three purchases at a time
+        underTest.registerTenant(harbourCinema, new CinemaTenantConfig(15, 5, 4, 3, List.of(trackedPay), harbourSeats));
+
+        // Many buyers all trying at once
+        int buyerCount = 16, purchasesEach = 25;
+        AtomicInteger accepted = new AtomicInteger(), rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService buyers = Executors.newFixedThreadPool(buyerCount);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < buyerCount; i++) {
+                results.add(buyers.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < purchasesEach; j++) {
+                        try {
+                            underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+                            accepted.incrementAndGet();
+                        } catch (InvalidPurchaseException busy) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            buyers.shutdownNow();
+        }
+
+        // The quota was never exceeded and every purchase was accounted for
+        assertTrue(mostInProgress.get() <= 3);
+        assertEquals(buyerCount * purchasesEach, accepted.get() + rejected.get());
+        verify(harbourSeats, times(accepted.get())).reserveSeat(myAccount, 1);
+
+        // And all of the quota is free again afterwards
+        assertEquals(0, inProgress.get());
+        underTest.purchaseTickets(harbourCinema, myAccount, new TicketTypeRequest(ADULT, 1));
+    }
+
+
+    // Payment client that signals when it starts paying and waits to be let go
+    private TicketPaymentService blockingPayment(CountDownLatch paying, CountDownLatch letGo) {
+        TicketPaymentService slowPay = mock(TicketPaymentService.class);
+        doAnswer(invocation -> {
+            paying.countDown();
+            letGo.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(slowPay).makePayment(anyLong(), anyInt());
+        return slowPay;
+    }
+
+    // Checks that the cinema is turning purchases away
+    private void assertQuotaExhausted(Long cinemaId, Long accountId) {
+        try {
+            underTest.purchaseTickets(cinemaId, accountId, new TicketTypeRequest(ADULT, 1));
+            fail("The purchase should have been turned away!");
+        } catch (InvalidPurchaseException busy) {
+            assertEquals("The cinema is handling too many purchases, please try again shortly.", busy.getMessage());
+        }
+    }
+
+}
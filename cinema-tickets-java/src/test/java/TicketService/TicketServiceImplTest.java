@@ -366,4 +366,63 @@ public class TicketServiceImplTest {
         }
     }
 
+
+    @Test
+    public void invalidPricing_ConstructorRejects() {
+        // Ticket Payment & Seat Reservation Services
+        TicketPaymentServiceImpl ticketPay = mock(TicketPaymentServiceImpl.class);
+        SeatReservationService seatReserver = mock(SeatReservationService.class);
+
+        // Negative prices, an empty group and a full group too expensive to pay for
+        int[][] badPricing = {{-1, 10, 20}, {20, -1, 20}, {20, 10, 0}, {Integer.MAX_VALUE / 2, 10, 3}};
+
+        for (int[] pricing : badPricing) {
+            try {
+                new TicketServiceImpl(ticketPay, seatReserver, pricing[0], pricing[1], pricing[2]);
+                fail("The pricing should have been rejected!");
+            } catch (IllegalArgumentException expected) {
+                // The pricing was rejected as expected
+            }
+        }
+    }
+
+
+    @Test
+    public void nonPositiveTicketCounts_PurchaseRejected() {
+        // A valid Account Number
+        Long myAccount = 2397844L;
+
+        // Empty and negative requests alongside a valid adult ticket
+        TicketTypeRequest[][] badOrders = {
+                {new TicketTypeRequest(ADULT, 1), new TicketTypeRequest(CHILD, 0)},
+                {new TicketTypeRequest(CHILD, -15), new TicketTypeRequest(ADULT, 30)}};
+
+        for (TicketTypeRequest[] badOrder : badOrders) {
+            try {
+                underTest.purchaseTickets(myAccount, badOrder);
+                fail("The ticket order should have been rejected!");
+            } catch (InvalidPurchaseException expected) {
+                assertEquals("Each ticket request must be for at least one ticket!", expected.getMessage());
+            }
+        }
+    }
+
+
+    @Test
+    public void hugeTicketCounts_TicketLimitEnforced() {
+        // Instantiating the Ticket Request(s)
+        // whose combined total would wrap round past the largest int
+        TicketTypeRequest hugeRequest = new TicketTypeRequest(ADULT, Integer.MAX_VALUE);
+
+        // A valid Account Number
+        Long myAccount = 2397844L;
+
+        // Expected Exception
+        ticketRequestExceptions.expect(InvalidPurchaseException.class);
+        ticketRequestExceptions.expectMessage("A Maximum of 20 tickets can be purchased per group!");
+
+        // The Request is made for Payment
+        underTest.purchaseTickets(myAccount, hugeRequest, hugeRequest);
+    }
+
 }